@@ -0,0 +1,292 @@
+import greenfoot.*;  // (World, Actor, GreenfootImage, Greenfoot and MouseInfo)
+import java.io.BufferedReader; // Import readers for the script file
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList; // Import ArrayLists
+import java.util.Arrays; // Import Arrays methods
+import java.util.HashMap; // Import HashMaps
+
+/**
+ * A dialogue engine that runs a conversation in a TextBox from a script file.
+ * The script is loaded once into a list of nodes, and each act only runs the node that is currently active,
+ * so a conversation of any length costs the same amount of work per frame.
+ * <p>
+ * Script format:
+ * Each line of the script is one command, and blank lines or lines starting with # are ignored.
+ * In text, \n starts a new line and {input} is replaced with the last line the user typed.
+ * <ul>
+ *  <li> say TEXT - types out the text one character at a time </li>
+ *  <li> show TEXT - displays the text all at once </li>
+ *  <li> prompt KEY - reads keyboard input until KEY is pressed </li>
+ *  <li> label NAME - marks the next command so that branches can jump to it </li>
+ *  <li> branch random NAME NAME ... - jumps to one of the labels at random </li>
+ *  <li> branch contains WORD NAME NAME - jumps to the first label if the last input contains WORD, otherwise the second </li>
+ *  <li> end - finishes the conversation </li>
+ * </ul>
+ * <p>
+ * Notes:
+ * Every message without {input} is laid out by the text box while the script loads,
+ * so showing it only needs to add the already broken up text to the output.
+ * Messages with {input} are laid out once when they are shown, and their layout is dropped once they scroll away.
+ * Lines the user typed are measured once, when the prompt finishes.
+ *
+ * @author Jerry Zhu
+ * @version 1
+ */
+public class Dialogue
+{
+    // Node types
+    private static final int SAY = 0;
+    private static final int SHOW = 1;
+    private static final int PROMPT = 2;
+    private static final int RANDOM = 3;
+    private static final int CONTAINS = 4;
+    private static final int END = 5;
+    // Initialize objects
+    private TextBox textBox;
+    private Node[] nodes;
+    // Initialize variables
+    private final int ANIMATION = 6; // Number of frames for typing animation
+    private int animationCount; // Animation counter for the text box
+    private int current; // Index of the node currently running
+    private boolean entered; // Whether the current node has started yet
+    private boolean finished;
+    private String lastInput;
+
+    /**
+     * A single command of the script. Branch labels are resolved to node indices while loading.
+     */
+    private static class Node
+    {
+        private int type;
+        private String text; // Laid out text for say and show, key for prompt, word for contains
+        private boolean dynamic; // Whether the text needs {input} filled in when shown
+        private String[] labels;
+        private int[] targets;
+        private int lineNumber; // Line of the script the node came from, for error messages
+    }
+
+    /**
+     * Constructor to load a script and precompute the layout of its messages.
+     * @param textBox    the text box the conversation is shown in
+     * @param fileName   the name of the script file, relative to the scenario folder
+     */
+    public Dialogue(TextBox textBox, String fileName){
+        this.textBox = textBox;
+        nodes = load(fileName);
+        animationCount = 0;
+        current = 0;
+        entered = false;
+        finished = nodes.length == 0;
+        lastInput = "";
+    }
+
+    /**
+     * Read the script file into nodes, laying out static messages and resolving labels to node indices.
+     * @param fileName   the name of the script file
+     * @return Node[]    the nodes of the script, in order
+     */
+    private Node[] load(String fileName){
+        ArrayList <Node> list = new ArrayList <Node> ();
+        HashMap <String, Integer> labelIndex = new HashMap <String, Integer> ();
+        InputStream stream = Dialogue.class.getClassLoader().getResourceAsStream(fileName);
+        if (stream == null){
+            throw new IllegalArgumentException("Dialogue script not found: " + fileName);
+        }
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8))){
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null){
+                lineNumber++;
+                line = line.trim();
+                if (line.length() == 0 || line.startsWith("#")){
+                    continue;
+                }
+                // Split the command from the rest of the line
+                int space = line.indexOf(' ');
+                String command = space == -1 ? line : line.substring(0, space);
+                String rest = space == -1 ? "" : line.substring(space + 1).trim();
+                Node node = new Node();
+                node.lineNumber = lineNumber;
+                if (command.equals("say") || command.equals("show")){
+                    node.type = command.equals("say") ? SAY : SHOW;
+                    String text = rest.replace("\\n", "\n");
+                    node.dynamic = text.contains("{input}");
+                    node.text = node.dynamic ? text : textBox.precomputeLayout(text);
+                }
+                else if (command.equals("prompt")){
+                    // Without a key, the prompt would wait forever
+                    if (rest.length() == 0){
+                        throw new IllegalArgumentException(fileName + " line " + lineNumber + ": prompt needs a key");
+                    }
+                    node.type = PROMPT;
+                    node.text = rest;
+                }
+                else if (command.equals("label")){
+                    if (rest.length() == 0){
+                        throw new IllegalArgumentException(fileName + " line " + lineNumber + ": label needs a name");
+                    }
+                    if (labelIndex.containsKey(rest)){
+                        throw new IllegalArgumentException(fileName + " line " + lineNumber + ": duplicate label: " + rest);
+                    }
+                    labelIndex.put(rest, list.size());
+                    continue;
+                }
+                else if (command.equals("branch")){
+                    String[] parts = rest.split("\\s+");
+                    if (parts[0].equals("random") && parts.length >= 2){
+                        node.type = RANDOM;
+                        node.labels = Arrays.copyOfRange(parts, 1, parts.length);
+                    }
+                    else if (parts[0].equals("contains") && parts.length == 4){
+                        node.type = CONTAINS;
+                        node.text = parts[1].toLowerCase();
+                        node.labels = Arrays.copyOfRange(parts, 2, parts.length);
+                    }
+                    else {
+                        throw new IllegalArgumentException(fileName + " line " + lineNumber + ": invalid branch: " + rest);
+                    }
+                }
+                else if (command.equals("end")){
+                    node.type = END;
+                }
+                else {
+                    throw new IllegalArgumentException(fileName + " line " + lineNumber + ": unknown command: " + command);
+                }
+                list.add(node);
+            }
+        }
+        catch (IOException e){
+            throw new IllegalArgumentException("Dialogue script could not be read: " + fileName, e);
+        }
+        // Resolve the branch labels now so that branching does not need to look anything up
+        for (Node node : list){
+            if (node.labels != null){
+                node.targets = new int[node.labels.length];
+                for (int i = 0; i < node.labels.length; i++){
+                    Integer target = labelIndex.get(node.labels[i]);
+                    if (target == null){
+                        throw new IllegalArgumentException(fileName + " line " + node.lineNumber + ": unknown label: " + node.labels[i]);
+                    }
+                    node.targets[i] = target;
+                }
+            }
+        }
+        return list.toArray(new Node[list.size()]);
+    }
+
+    /**
+     * Run the current node of the script. Called in the World's act method.
+     */
+    public void act(){
+        if (finished){
+            return;
+        }
+        Node node = nodes[current];
+        switch (node.type){
+            case SAY:
+                // Add the message once, then type it out until it is fully shown
+                if (!entered){
+                    textBox.addToOutput(getText(node));
+                    entered = true;
+                }
+                if (!textBox.stopTyping()){
+                    animateText();
+                }
+                else {
+                    advance(current + 1);
+                }
+                break;
+            case SHOW:
+                textBox.addToOutput(getText(node));
+                textBox.update();
+                advance(current + 1);
+                break;
+            case PROMPT:
+                // Read keyboard input until the delimiter key is pressed
+                if (!entered){
+                    textBox.setFinishedPress(false);
+                    entered = true;
+                }
+                else {
+                    textBox.update(node.text);
+                    if (textBox.getFinishedPress()){
+                        lastInput = textBox.getLastLine();
+                        // Start the next message on its own line
+                        if (!textBox.getOutput().endsWith("\n")){
+                            textBox.addToOutput("\n");
+                        }
+                        // The input is finished, so measure its lines once instead of on every frame
+                        textBox.cacheShownLines();
+                        advance(current + 1);
+                    }
+                }
+                break;
+            case RANDOM:
+                advance(node.targets[Greenfoot.getRandomNumber(node.targets.length)]);
+                break;
+            case CONTAINS:
+                advance(lastInput.toLowerCase().contains(node.text) ? node.targets[0] : node.targets[1]);
+                break;
+            case END:
+                finished = true;
+                break;
+        }
+    }
+
+    /**
+     * Move to another node, finishing the conversation if the script runs out.
+     * @param next   the index of the next node
+     */
+    private void advance(int next){
+        current = next;
+        entered = false;
+        finished = current >= nodes.length;
+    }
+
+    /**
+     * Get the text of a message node, filling in and laying out the user's input if needed.
+     * @param node      the say or show node
+     * @return String   the laid out text
+     */
+    private String getText(Node node){
+        if (node.dynamic){
+            return textBox.layoutShown(node.text.replace("{input}", lastInput));
+        }
+        return node.text;
+    }
+
+    /**
+     * Perform the typing animation by typing the text every few iterations
+     * @param times   number of characters typed or shown at a time
+     */
+    private void animateText(int times){
+        // Increment animation count and simulate user typing
+        if (animationCount != 0){
+            animationCount--;
+        }
+        else {
+            for (int i = 0; i < times; i++){
+                textBox.simulateType();
+            }
+            animationCount = ANIMATION;
+        }
+    }
+
+    /**
+     * Overloaded animate function, to animate the text only one character at a time
+     */
+    private void animateText(){
+        animateText(1);
+    }
+
+    /**
+     * Check whether the conversation has reached its end.
+     * @return boolean   whether the script has finished
+     */
+    public boolean isFinished(){
+        return finished;
+    }
+}
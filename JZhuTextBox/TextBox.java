@@ -1,6 +1,7 @@
 import greenfoot.*;  // (World, Actor, GreenfootImage, Greenfoot and MouseInfo)
 import java.util.ArrayList; // Import ArrayLists
 import java.util.Arrays; // Import Arrays methods
+import java.util.HashMap; // Import HashMaps
 
 /**
  * A modular widget that can get input from user (if needed) or take string output and display it to the World using a text box.
@@ -30,6 +31,9 @@ import java.util.Arrays; // Import Arrays methods
  * Notes: 
  * When using typing animation methods of text box, curOutput changes while lastOutput is stored and outputText remains the same. 
  * Centering text may be memory intensive, so use that method sparingly. 
+ * Text that is known ahead of time can be passed through precomputeLayout while loading, so that 
+ * displaying it later does not need to measure any strings. Text that is only known while running can be 
+ * passed through layoutShown instead, which only keeps its offsets while the text is still in the output. 
  * For simulating typing commands, make sure the current output and text output are the same before continuing to the next command 
  * (use the stopTyping method).
  * 
@@ -48,6 +52,9 @@ public class TextBox extends Actor
     // Initialize ArrayLists
     private ArrayList <String> textC;
     private ArrayList <String> textO;
+    // Initialize HashMaps
+    private HashMap <String, Integer> lineOffsets; // Precomputed centering offsets for each laid out line
+    private HashMap <String, Integer> shownOffsets; // Centering offsets for lines laid out while running, kept while shown
     // Initialize variables
     private int width;
     private int centeredY;
@@ -190,6 +197,8 @@ public class TextBox extends Actor
         outputText = startText;
         curOutput = outputText;
         lastOutput = "";
+        lineOffsets = new HashMap <String, Integer> ();
+        shownOffsets = new HashMap <String, Integer> ();
     }
     
     /**
@@ -205,7 +214,20 @@ public class TextBox extends Actor
         if (centered){
             // Check and set the centered position for each line of text
             for (int i = 0; i < textC.size(); i++){
-                centeredY = (width/2) - getStringWidth(textFont, textC.get(i))/2;
+                // Use the offset of the full line if it was laid out ahead of time, otherwise measure the line
+                Integer offset = null;
+                if (i < textO.size()){
+                    offset = lineOffsets.get(textO.get(i));
+                    if (offset == null){
+                        offset = shownOffsets.get(textO.get(i));
+                    }
+                }
+                if (offset != null){
+                    centeredY = offset;
+                }
+                else {
+                    centeredY = (width/2) - getStringWidth(textFont, textC.get(i))/2;
+                }
                 textBox.drawString(textC.get(i), centeredY, fontSize*(i+1)); 
             }
         }
@@ -217,6 +239,144 @@ public class TextBox extends Actor
         }
     }
     
+    /**
+     * Lay out text ahead of time so that it can be displayed without measuring it again. 
+     * Lines that are wider than the text box are broken between words, and if the text is centered, 
+     * the centering offset of each line is stored so that display does not need to call getStringWidth. 
+     * <p>
+     * Note: This method calls getStringWidth for every line, so call it while loading rather than in an act method. 
+     * @param text      the text to lay out
+     * @return String   the text with line breaks inserted, ready to be added to the output
+     */
+    public String precomputeLayout(String text){
+        return layout(text, lineOffsets);
+    }
+    
+    /**
+     * Lay out text that is only known while running, such as a message that includes user input. 
+     * Works the same way as precomputeLayout, but the centering offsets are dropped once the lines 
+     * scroll out of the output, so laying out many different messages does not keep using more memory. 
+     * @param text      the text to lay out
+     * @return String   the text with line breaks inserted, ready to be added to the output
+     */
+    public String layoutShown(String text){
+        pruneShownOffsets();
+        return layout(text, shownOffsets);
+    }
+    
+    /**
+     * Store the centering offset of every line in the output that does not have one yet, such as text the user has finished typing. 
+     * Like layoutShown, the offsets are dropped once the lines scroll out of the output. 
+     * Call this once the text will not change anymore, since the offset of a line that keeps changing is never used again. 
+     */
+    public void cacheShownLines(){
+        if (!centered){
+            return;
+        }
+        pruneShownOffsets();
+        for (String line : outputText.split("\n")){
+            if (!lineOffsets.containsKey(line) && !shownOffsets.containsKey(line)){
+                shownOffsets.put(line, (width/2) - getStringWidth(textFont, line)/2);
+            }
+        }
+    }
+    
+    /**
+     * Break up the lines of text that are too wide and store the centering offset of each line. 
+     * @param text      the text to lay out
+     * @param offsets   the HashMap to store the centering offsets in
+     * @return String   the text with line breaks inserted
+     */
+    private String layout(String text, HashMap <String, Integer> offsets){
+        // Wrap each line of the text, keeping any trailing new line
+        String[] lines = text.split("\n", -1);
+        String laidOut = "";
+        for (int i = 0; i < lines.length; i++){
+            ArrayList <String> wrapped = wrapLine(lines[i], offsets);
+            for (int j = 0; j < wrapped.size(); j++){
+                laidOut += wrapped.get(j);
+                if (j < wrapped.size() - 1){
+                    laidOut += "\n";
+                }
+            }
+            if (i < lines.length - 1){
+                laidOut += "\n";
+            }
+        }
+        return laidOut;
+    }
+    
+    /**
+     * Remove the offsets of lines laid out while running that are no longer part of the output. 
+     * The output never holds more than maxLines lines, so this keeps the HashMap small. 
+     */
+    private void pruneShownOffsets(){
+        if (shownOffsets.isEmpty()){
+            return;
+        }
+        shownOffsets.keySet().retainAll(Arrays.asList(outputText.split("\n")));
+    }
+    
+    /**
+     * Break a single line of text between words so that each piece fits within the width of the text box, 
+     * storing the centering offset of each piece. Widths measured while breaking the line are reused for the offsets, 
+     * so no piece is measured twice. 
+     * A word that is wider than the text box on its own is kept on its own line. 
+     * @param line                  the line of text to break
+     * @param offsets               the HashMap to store the centering offsets in
+     * @return ArrayList <String>   the pieces of the line, in order
+     */
+    private ArrayList <String> wrapLine(String line, HashMap <String, Integer> offsets){
+        ArrayList <String> wrapped = new ArrayList <String> ();
+        // Most lines fit, so only break them up if the whole line is too wide
+        int lineWidth = getStringWidth(textFont, line);
+        if (lineWidth <= width){
+            addPiece(wrapped, offsets, line, lineWidth);
+            return wrapped;
+        }
+        String[] words = line.split(" ", -1);
+        String current = words[0];
+        int currentWidth = -1; // Width of the current piece, or -1 if it has not been measured
+        for (int i = 1; i < words.length; i++){
+            String candidate = current + " " + words[i];
+            if (current.trim().length() == 0){
+                current = candidate;
+                currentWidth = -1;
+                continue;
+            }
+            int candidateWidth = getStringWidth(textFont, candidate);
+            if (candidateWidth > width){
+                // Drop the spaces left before the break; they do not change the measured width
+                addPiece(wrapped, offsets, current.replaceAll(" +$", ""), currentWidth);
+                current = words[i];
+                currentWidth = -1;
+            }
+            else {
+                current = candidate;
+                currentWidth = candidateWidth;
+            }
+        }
+        addPiece(wrapped, offsets, current, currentWidth);
+        return wrapped;
+    }
+    
+    /**
+     * Add a piece of a wrapped line and store its centering offset if the text is centered. 
+     * @param wrapped      the pieces of the line so far
+     * @param offsets      the HashMap to store the centering offset in
+     * @param piece        the piece of the line to add
+     * @param pieceWidth   the width of the piece, or -1 if it still needs to be measured
+     */
+    private void addPiece(ArrayList <String> wrapped, HashMap <String, Integer> offsets, String piece, int pieceWidth){
+        wrapped.add(piece);
+        if (centered && !lineOffsets.containsKey(piece) && !offsets.containsKey(piece)){
+            if (pieceWidth < 0){
+                pieceWidth = getStringWidth(textFont, piece);
+            }
+            offsets.put(piece, (width/2) - pieceWidth/2);
+        }
+    }
+    
     /**
      * Updates the current output immediately to match the entire output text. 
      * Make sure that this is not more than maxLines, as some lines may be cut out if it exceeds the size of the window
@@ -250,7 +410,7 @@ public class TextBox extends Actor
             if(rawInput == "enter"){
                 outputText += "\n";
             }
-            if (rawInput == stop){
+            if (rawInput.equals(stop)){
                 finishedPress = true;
             }
             if(rawInput == "backspace"){
@@ -421,10 +581,12 @@ public class TextBox extends Actor
         // Make new array lists for curOutput and outputText
         textC = new ArrayList <String> (Arrays.asList(curOutput.split("\n")));
         textO = new ArrayList <String> (Arrays.asList(outputText.split("\n")));
+        boolean removed = false;
         while (textC.size() > maxLines || (textC.size() == maxLines && outputText.endsWith("\n"))){
             // While there are still lines to be deleted, delete the lines and change the variables and lists
             textC.remove(0);
             textO.remove(0);
+            removed = true;
             boolean newLine = curOutput.endsWith("\n");
             curOutput = "";
             for (String line : textC){
@@ -439,6 +601,10 @@ public class TextBox extends Actor
                 outputText = outputText.substring(0, outputText.length() - 1);
             }
         }
+        // Forget the offsets of lines that have scrolled out of the text box
+        if (removed){
+            pruneShownOffsets();
+        }
     }
     
     /**